@@ -1,6 +1,10 @@
 import interfaces.INote;
 import interfaces.INoteManager;
 import interfaces.IUser;
+import loadtest.RecordingNoteManager;
+import loadtest.Trace;
+import objects.LargeNoteDocument;
+import objects.LargeNoteEditorKit;
 import objects.Note;
 import objects.NoteManager;
 import objects.User;
@@ -13,6 +17,8 @@ import javax.swing.text.BadLocationException;
 import javax.swing.text.Document;
 import javax.swing.text.Element;
 import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.PlainDocument;
 import javax.swing.text.html.HTML;
 import javax.swing.text.html.HTMLDocument;
 import javax.swing.text.html.HTMLEditorKit;
@@ -20,6 +26,7 @@ import java.awt.*;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Comparator;
 import java.util.List;
@@ -34,9 +41,12 @@ public class NoteApplication extends JFrame {
     private JComboBox<String> userComboBox; // Выпадающий список для выбора пользователя
     private JList<INote> notesList; // Список заметок, отображаемый для текущего пользователя
     private JTextPane noteTextArea; // Текстовое поле для просмотра и редактирования заметки
+    private JEditorPane largeNoteTextArea; // Текстовое поле для больших заметок, отрисовывающее только видимые строки
+    private LargeNoteDocument largeNoteDocument; // Документ открытой большой заметки или null
     private JScrollPane listScrollPane; // Панель прокрутки для списка заметок
     private JScrollPane textScrollPane; // Панель прокрутки для текстового поля заметки
     private JToolBar toolbar; // Панель инструментов с кнопками действий
+    private final List<JComponent> formattingControls = new ArrayList<>(); // Кнопки и списки форматирования HTML-заметок
     private JPanel listPanel; // Панель, содержащая список пользователей и заметок
 
     /**
@@ -63,7 +73,7 @@ public class NoteApplication extends JFrame {
          */
         private void updateSelectedNote() {
             int selectedIndex = notesList.getSelectedIndex();
-            if (selectedIndex >= 0) {
+            if (selectedIndex >= 0 && largeNoteDocument == null) { // Большая заметка сохраняется через свой документ
                 INote selectedNote = currentUser.getNotes().get(selectedIndex);
                 selectedNote.setText(noteTextArea.getText());
             }
@@ -148,7 +158,9 @@ private void createInitialData() {
             int selectedIndex = notesList.getSelectedIndex(); // Получает индекс выбранной заметки
             if (selectedIndex >= 0) {
                 INote selectedNote = currentUser.getNotes().get(selectedIndex); // Получает выбранную заметку
-                noteTextArea.setText(selectedNote.getText()); // Устанавливает текст заметки в текстовое поле
+                showNote(selectedNote); // Открывает заметку в подходящем текстовом поле
+            } else {
+                closeLargeNote(); // Выбор снят: большая заметка больше не должна редактироваться
             }
         });
         listScrollPane = createScrollPane(notesList); // Создает панель прокрутки для списка заметок
@@ -164,9 +176,70 @@ private void createInitialData() {
         noteTextArea.setDocument(new HTMLDocument()); // Устанавливает документ HTML для текстового поля
         noteTextArea.getDocument().addDocumentListener(noteTextAreaListener); // Добавляет слушатель изменений текста
 
+        largeNoteTextArea = new JEditorPane(); // Создает текстовое поле для больших заметок без переноса строк
+        largeNoteTextArea.setEditorKit(new LargeNoteEditorKit()); // Отрисовывает только видимые строки
+        largeNoteTextArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, noteTextArea.getFont().getSize())); // Ширина строк оценивается по моноширинному шрифту
+
         textScrollPane = createScrollPane(noteTextArea); // Создает панель прокрутки для текстового поля
     }
 
+    /**
+     * Показывает заметку в текстовом поле. Большие заметки открываются как обычный текст через
+     * {@link LargeNoteDocument}, чтобы не разбирать и не компоновать весь HTML в потоке обработки событий.
+     * @param note Заметка для отображения.
+     */
+    private void showNote(INote note) {
+        closeLargeNote(); // Сохраняет и закрывает ранее открытую большую заметку
+        if (LargeNoteDocument.isLarge(note)) {
+            largeNoteDocument = new LargeNoteDocument(note);
+            largeNoteTextArea.setDocument(largeNoteDocument);
+            largeNoteTextArea.setCaretPosition(0);
+            textScrollPane.setViewportView(largeNoteTextArea);
+            setFormattingEnabled(false); // Форматирование действует только на HTML-редактор, скрытый для большой заметки
+        } else {
+            noteTextArea.setText(note.getText());
+        }
+    }
+
+    /**
+     * Записывает изменения открытой большой заметки в модель данных.
+     */
+    private void saveLargeNote() {
+        if (largeNoteDocument != null) {
+            largeNoteDocument.save();
+        }
+    }
+
+    /**
+     * Сохраняет открытую большую заметку и возвращает HTML-редактор вместо ее текстового поля.
+     */
+    private void closeLargeNote() {
+        if (largeNoteDocument != null) {
+            largeNoteDocument.save();
+            largeNoteDocument = null;
+            largeNoteTextArea.setDocument(new PlainDocument()); // Освобождает документ закрытой заметки
+            textScrollPane.setViewportView(noteTextArea);
+            setFormattingEnabled(true); // Возвращает форматирование вместе с HTML-редактором
+        }
+    }
+
+    /**
+     * Включает или отключает кнопки и списки форматирования на панели инструментов.
+     * @param enabled true, чтобы форматирование было доступно.
+     */
+    private void setFormattingEnabled(boolean enabled) {
+        for (JComponent control : formattingControls) {
+            control.setEnabled(enabled);
+        }
+    }
+
+    /**
+     * @return Текстовое поле, в котором сейчас открыта заметка.
+     */
+    private JTextComponent getActiveTextArea() {
+        return largeNoteDocument != null ? largeNoteTextArea : noteTextArea;
+    }
+
     /**
      * Создает панель инструментов с кнопками для основных действий с заметками.
      */
@@ -225,6 +298,11 @@ private void createInitialData() {
             }
         });
         toolbar.add(fontSizeComboBox); // Добавляет выпадающий список размеров шрифта на панель инструментов
+
+        formattingControls.add(boldButton); // Запоминает элементы форматирования, чтобы отключать их для больших заметок
+        formattingControls.add(italicButton);
+        formattingControls.add(fontComboBox);
+        formattingControls.add(fontSizeComboBox);
     }
 
     /**
@@ -330,7 +408,8 @@ private void createInitialData() {
                 String base64Image = Base64.getEncoder().encodeToString(Files.readAllBytes(selectedFile.toPath()));
                 String mimeType = Files.probeContentType(selectedFile.toPath()); // Получаем MIME тип файла
                 String imageTag = "<img src='data:" + mimeType + ";base64," + base64Image + "'/>";
-                noteTextArea.getDocument().insertString(noteTextArea.getCaretPosition(), imageTag, null);
+                JTextComponent textArea = getActiveTextArea(); // Получает текстовое поле открытой заметки
+                textArea.getDocument().insertString(textArea.getCaretPosition(), imageTag, null);
             } catch (IOException | BadLocationException ex) {
                 ex.printStackTrace();
             }
@@ -368,6 +447,7 @@ private void createInitialData() {
     private void editSelectedNote() {
         int selectedIndex = notesList.getSelectedIndex();
         if (selectedIndex >= 0) {
+            saveLargeNote(); // Сохраняет изменения большой заметки перед чтением ее текста
             INote selectedNote = currentUser.getNotes().get(selectedIndex);
             String oldText = selectedNote.getText();
             String newText = JOptionPane.showInputDialog(this, "Enter new note text:", oldText);
@@ -388,6 +468,7 @@ private void createInitialData() {
     private void deleteSelectedNote() {
         int selectedIndex = notesList.getSelectedIndex(); // Получает индекс выбранной заметки
         if (selectedIndex >= 0) { // Проверяет, выбрана ли заметка
+            closeLargeNote(); // Закрывает большую заметку до удаления, чтобы правки не ушли в удаленную заметку
             currentUser.deleteNote(selectedIndex); // Удаляет заметку из модели данных
             updateNotesList(); // Обновляет список заметок
         }
@@ -403,6 +484,7 @@ private void saveNotes() {
         File selectedFile = fileChooser.getSelectedFile(); // Получает выбранный файл
         String filename = selectedFile.getAbsolutePath(); // Получает абсолютный путь к файлу
         try {
+            saveLargeNote(); // Сохраняет изменения открытой большой заметки
             currentUser.saveNotesToFile(filename); // Сохраняет заметки в файл
         } catch (IOException e) {
             JOptionPane.showMessageDialog(this, "Error saving notes: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE); // Выводит сообщение об ошибке сохранения
@@ -420,6 +502,7 @@ private void saveNotes() {
             File selectedFile = fileChooser.getSelectedFile(); // Получает выбранный файл
             String filename = selectedFile.getAbsolutePath(); // Получает абсолютный путь к файлу
             try {
+                closeLargeNote(); // Сохраняет большую заметку, пока она еще принадлежит пользователю
                 currentUser.loadNotesFromFile(filename); // Загружает заметки из файла
                 updateNotesList(); // Обновляет список заметок
             } catch (IOException | ClassNotFoundException e) {
@@ -432,6 +515,7 @@ private void saveNotes() {
      * Обновляет список заметок, отображаемый в интерфейсе, получая данные от текущего пользователя.
      */
     private void updateNotesList() {
+        closeLargeNote(); // setListData снимает выбор, поэтому открытая большая заметка закрывается
         List<INote> notes = currentUser.getNotes().stream()
                 .sorted(Comparator.comparing(INote::getCreationDate).reversed())
                 .collect(Collectors.toList());
@@ -457,6 +541,19 @@ private void saveNotes() {
      */
     public static void main(String[] args) {
         INoteManager noteManager = new NoteManager(); // Создает менеджер заметок
-        SwingUtilities.invokeLater(() -> new NoteApplication(noteManager)); // Запускает графический интерфейс в потоке обработки событий Swing
+        String traceFile = System.getProperty("notes.trace"); // Файл для записи трассы вызовов, если задан
+        if (traceFile != null) {
+            RecordingNoteManager recordingManager = new RecordingNoteManager(noteManager, new Trace());
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> { // Сохраняет трассу при завершении приложения
+                try {
+                    recordingManager.getTrace().saveToFile(traceFile);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+            noteManager = recordingManager; // Записывает вызовы менеджера и пользователей в трассу
+        }
+        INoteManager applicationManager = noteManager;
+        SwingUtilities.invokeLater(() -> new NoteApplication(applicationManager)); // Запускает графический интерфейс в потоке обработки событий Swing
     }
 }
@@ -0,0 +1,72 @@
+package loadtest;
+
+import interfaces.INoteManager;
+import objects.NoteManager;
+
+import java.io.IOException;
+
+/**
+ * Точка входа для генерации и воспроизведения трасс нагрузки.
+ * <pre>
+ * generate &lt;file&gt; &lt;operations&gt; [users] [userSkew] [minNoteSize] [maxNoteSize] [editRatio] [deleteRatio] [opsPerSecond] [seed]
+ * replay &lt;file&gt; [threads] [speed]
+ * </pre>
+ * Трассу работы приложения можно записать, запустив его с системным свойством {@code notes.trace=<file>}.
+ */
+public class LoadTest {
+    public static void main(String[] args) throws IOException, ClassNotFoundException, InterruptedException {
+        if (args.length < 2 || args[0].equals("generate") && args.length < 3) {
+            printUsage();
+            return;
+        }
+        String filename = args[1];
+        switch (args[0]) {
+            case "generate": {
+                int operations = Integer.parseInt(args[2]);
+                WorkloadGenerator generator = new WorkloadGenerator(
+                        intArg(args, 3, 100),
+                        doubleArg(args, 4, 2),
+                        intArg(args, 5, 100),
+                        intArg(args, 6, 10_000),
+                        doubleArg(args, 7, 0.7),
+                        doubleArg(args, 8, 0.05),
+                        doubleArg(args, 9, 1000),
+                        args.length > 10 ? Long.parseLong(args[10]) : 42);
+                Trace trace = generator.generate(operations);
+                trace.saveToFile(filename);
+                System.out.println("Generated " + trace.getEvents().size() + " events to " + filename);
+                break;
+            }
+            case "replay": {
+                Trace trace = Trace.loadFromFile(filename);
+                INoteManager noteManager = new NoteManager();
+                WorkloadReplayer replayer = new WorkloadReplayer(intArg(args, 2, 1), doubleArg(args, 3, 0));
+                if (trace.hasRecordedDurations()) {
+                    System.out.println("Recorded:");
+                    System.out.println(new ReplayReport(trace.getRecordedLatencies(), null, 0,
+                            trace.getRecordedElapsedNanos(), -1));
+                }
+                System.out.println("Replayed:");
+                System.out.println(replayer.replay(trace, noteManager));
+                break;
+            }
+            default:
+                printUsage();
+        }
+    }
+
+    private static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    private static double doubleArg(String[] args, int index, double defaultValue) {
+        return args.length > index ? Double.parseDouble(args[index]) : defaultValue;
+    }
+
+    private static void printUsage() {
+        System.out.println("Usage:");
+        System.out.println("  generate <file> <operations> [users] [userSkew] [minNoteSize] [maxNoteSize]"
+                + " [editRatio] [deleteRatio] [opsPerSecond] [seed]");
+        System.out.println("  replay <file> [threads] [speed]");
+    }
+}
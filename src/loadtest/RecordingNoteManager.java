@@ -0,0 +1,221 @@
+package loadtest;
+
+import interfaces.INote;
+import interfaces.INoteManager;
+import interfaces.IUser;
+import loadtest.TraceEvent.Operation;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Менеджер заметок, записывающий в трассу все вызовы, переданные другому менеджеру.
+ * Пользователи, возвращаемые менеджером, также записывают свои вызовы, так как интерфейс
+ * приложения работает с заметками через {@link IUser}.
+ */
+public class RecordingNoteManager implements INoteManager {
+    private final INoteManager noteManager;
+    private final Trace trace;
+    private final long startNanos;
+    private final Map<IUser, RecordingUser> recordingUsers;
+
+    public RecordingNoteManager(INoteManager noteManager, Trace trace) {
+        this.noteManager = noteManager;
+        this.trace = trace;
+        this.startNanos = System.nanoTime();
+        this.recordingUsers = new ConcurrentHashMap<>();
+    }
+
+    public Trace getTrace() {
+        return trace;
+    }
+
+    @Override
+    public IUser createUser(String name) {
+        long start = System.nanoTime();
+        IUser user = noteManager.createUser(name);
+        record(Operation.CREATE_USER, name, -1, name.length(), start);
+        return wrap(user);
+    }
+
+    @Override
+    public void createNote(String userName, String noteText) {
+        long start = System.nanoTime();
+        noteManager.createNote(userName, noteText);
+        record(Operation.CREATE_NOTE, userName, -1, noteText.length(), start);
+    }
+
+    @Override
+    public void editNote(String username, int noteIndex, String newText) {
+        long start = System.nanoTime();
+        noteManager.editNote(username, noteIndex, newText);
+        record(Operation.EDIT_NOTE, username, noteIndex, newText.length(), start);
+    }
+
+    @Override
+    public void deleteNote(String username, int noteIndex) {
+        long start = System.nanoTime();
+        noteManager.deleteNote(username, noteIndex);
+        record(Operation.DELETE_NOTE, username, noteIndex, 0, start);
+    }
+
+    @Override
+    public List<INote> getNotes(String username) {
+        long start = System.nanoTime();
+        List<INote> notes = noteManager.getNotes(username);
+        record(Operation.GET_NOTES, username, -1, notes != null ? notes.size() : 0, start);
+        RecordingUser user = notes != null ? findUser(username) : null;
+        return user != null ? user.wrap(notes) : notes;
+    }
+
+    @Override
+    public List<IUser> getUsers() {
+        long start = System.nanoTime();
+        List<IUser> users = noteManager.getUsers();
+        record(Operation.GET_USERS, null, -1, users.size(), start);
+        return users.stream().map(this::wrap).collect(Collectors.toList());
+    }
+
+    private RecordingUser wrap(IUser user) {
+        return recordingUsers.computeIfAbsent(user, RecordingUser::new);
+    }
+
+    /**
+     * Ищет пользователя без записи в трассу, чтобы заметки, полученные по имени, оборачивались им же.
+     * @return Записывающий пользователь или null, если пользователя с таким именем нет.
+     */
+    private RecordingUser findUser(String username) {
+        for (IUser user : noteManager.getUsers()) {
+            if (user.getName().equals(username)) {
+                return wrap(user);
+            }
+        }
+        return null;
+    }
+
+    private void record(Operation operation, String userName, int noteIndex, int payloadSize, long start) {
+        long end = System.nanoTime();
+        trace.addEvent(new TraceEvent(operation, userName, noteIndex, payloadSize, start - startNanos, end - start));
+    }
+
+    /**
+     * Пользователь, записывающий вызовы работы с заметками в трассу менеджера.
+     * Возвращает заметки-обертки, так как интерфейс приложения меняет текст через {@link INote#setText(String)}.
+     */
+    private class RecordingUser implements IUser {
+        private final IUser user;
+        private final Map<INote, INote> recordingNotes;
+
+        RecordingUser(IUser user) {
+            this.user = user;
+            this.recordingNotes = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public String getName() {
+            return user.getName();
+        }
+
+        @Override
+        public INote createNote(String text) {
+            long start = System.nanoTime();
+            INote note = user.createNote(text);
+            record(Operation.CREATE_NOTE, user.getName(), -1, text.length(), start);
+            return wrap(note);
+        }
+
+        @Override
+        public void editNote(int index, String newText) {
+            long start = System.nanoTime();
+            user.editNote(index, newText);
+            record(Operation.EDIT_NOTE, user.getName(), index, newText.length(), start);
+        }
+
+        @Override
+        public void deleteNote(int index) {
+            INote note = user.getNotes().get(index);
+            long start = System.nanoTime();
+            user.deleteNote(index);
+            record(Operation.DELETE_NOTE, user.getName(), index, 0, start);
+            recordingNotes.remove(note);
+        }
+
+        @Override
+        public List<INote> getNotes() {
+            long start = System.nanoTime();
+            List<INote> notes = user.getNotes();
+            record(Operation.GET_NOTES, user.getName(), -1, notes.size(), start);
+            return wrap(notes);
+        }
+
+        @Override
+        public void saveNotesToFile(String filename) throws IOException {
+            user.saveNotesToFile(filename);
+        }
+
+        @Override
+        public void loadNotesFromFile(String filename) throws IOException, ClassNotFoundException {
+            long start = System.nanoTime();
+            user.loadNotesFromFile(filename);
+            record(Operation.LOAD_NOTES, user.getName(), -1, user.getNotes().size(), start);
+            recordingNotes.clear();
+        }
+
+        private INote wrap(INote note) {
+            return recordingNotes.computeIfAbsent(note, RecordingNote::new);
+        }
+
+        /**
+         * @return Заметки-обертки из кэша этого пользователя, в том же порядке.
+         */
+        List<INote> wrap(List<INote> notes) {
+            return Collections.unmodifiableList(notes.stream().map(this::wrap).collect(Collectors.toList()));
+        }
+
+        /**
+         * Заметка, записывающая изменение текста как {@link Operation#EDIT_NOTE} с ее текущим индексом.
+         */
+        private class RecordingNote implements INote {
+            private final INote note;
+
+            RecordingNote(INote note) {
+                this.note = note;
+            }
+
+            @Override
+            public String getText() {
+                return note.getText();
+            }
+
+            @Override
+            public void setText(String text) {
+                int index = user.getNotes().indexOf(note);
+                long start = System.nanoTime();
+                note.setText(text);
+                if (index >= 0) { // Изменение удаленной заметки не затрагивает данные пользователя
+                    record(Operation.EDIT_NOTE, user.getName(), index, text.length(), start);
+                }
+            }
+
+            @Override
+            public String getNoteString() {
+                return note.getNoteString();
+            }
+
+            @Override
+            public LocalDateTime getCreationDate() {
+                return note.getCreationDate();
+            }
+
+            @Override
+            public String toString() {
+                return note.toString();
+            }
+        }
+    }
+}
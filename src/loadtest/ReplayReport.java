@@ -0,0 +1,113 @@
+package loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Итоги прогона нагрузки: пропускная способность, перцентили задержек и скорость выделения памяти.
+ */
+public class ReplayReport {
+    private final int operations;
+    private final int errors;
+    private final long elapsedNanos;
+    private final long allocatedBytes;
+    private final long[] serviceTimes;
+    private final long[] responseTimes;
+
+    /**
+     * @param serviceTimes Длительности отдельных вызовов в наносекундах.
+     * @param responseTimes Время от запланированного начала до окончания вызовов или null, если расписания нет.
+     * @param errors Количество вызовов, завершившихся исключением.
+     * @param elapsedNanos Общая длительность прогона.
+     * @param allocatedBytes Объем памяти, выделенный вызовами, или -1, если JVM его не сообщает.
+     */
+    public ReplayReport(long[] serviceTimes, long[] responseTimes, int errors, long elapsedNanos, long allocatedBytes) {
+        this.serviceTimes = sorted(serviceTimes);
+        this.responseTimes = responseTimes != null ? sorted(responseTimes) : null;
+        this.operations = serviceTimes.length;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public int getOperations() {
+        return operations;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return Количество операций в секунду.
+     */
+    public double getThroughput() {
+        return elapsedNanos > 0 ? operations * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * @param percentile Перцентиль от 0 до 100.
+     * @return Длительность вызова в наносекундах, не превышаемая указанной долей вызовов.
+     */
+    public long getLatencyPercentile(double percentile) {
+        return percentile(serviceTimes, percentile);
+    }
+
+    /**
+     * @param percentile Перцентиль от 0 до 100.
+     * @return Время отклика с учетом ожидания в очереди или длительность вызова, если расписания нет.
+     */
+    public long getResponseTimePercentile(double percentile) {
+        return percentile(responseTimes != null ? responseTimes : serviceTimes, percentile);
+    }
+
+    /**
+     * @return Байт в секунду или -1, если объем выделенной памяти неизвестен.
+     */
+    public double getAllocationRate() {
+        if (allocatedBytes < 0 || elapsedNanos <= 0) {
+            return -1;
+        }
+        return allocatedBytes * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("operations: %d, errors: %d, elapsed: %.1f ms%n",
+                operations, errors, elapsedNanos / 1e6));
+        report.append(String.format("throughput: %.1f ops/s%n", getThroughput()));
+        report.append(formatPercentiles("latency", serviceTimes));
+        if (responseTimes != null) {
+            report.append(formatPercentiles("response time", responseTimes));
+        }
+        double allocationRate = getAllocationRate();
+        report.append(allocationRate >= 0
+                ? String.format("allocation rate: %.1f MB/s", allocationRate / (1024 * 1024))
+                : "allocation rate: unavailable");
+        return report.toString();
+    }
+
+    private static String formatPercentiles(String name, long[] values) {
+        return String.format("%s p50: %.1f us, p90: %.1f us, p99: %.1f us, p99.9: %.1f us, max: %.1f us%n", name,
+                percentile(values, 50) / 1e3, percentile(values, 90) / 1e3, percentile(values, 99) / 1e3,
+                percentile(values, 99.9) / 1e3, percentile(values, 100) / 1e3);
+    }
+
+    private static long percentile(long[] values, double percentile) {
+        if (values.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * values.length) - 1;
+        return values[Math.max(0, Math.min(index, values.length - 1))];
+    }
+
+    private static long[] sorted(long[] values) {
+        long[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,63 @@
+package loadtest;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Последовательность вызовов, упорядоченная по времени начала.
+ */
+public class Trace implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private List<TraceEvent> events;
+
+    public Trace() {
+        this.events = new ArrayList<>();
+    }
+
+    public synchronized void addEvent(TraceEvent event) {
+        events.add(event);
+    }
+
+    public synchronized List<TraceEvent> getEvents() {
+        return Collections.unmodifiableList(new ArrayList<>(events));
+    }
+
+    /**
+     * @return Длительности вызовов, измеренные при записи трассы.
+     */
+    public synchronized long[] getRecordedLatencies() {
+        return events.stream().mapToLong(TraceEvent::getDurationNanos).toArray();
+    }
+
+    /**
+     * @return true, если трасса записана с работающего приложения, а не сгенерирована без длительностей вызовов.
+     */
+    public synchronized boolean hasRecordedDurations() {
+        return events.stream().anyMatch(event -> event.getDurationNanos() > 0);
+    }
+
+    /**
+     * @return Время от начала трассы до окончания последнего вызова.
+     */
+    public synchronized long getRecordedElapsedNanos() {
+        return events.stream().mapToLong(event -> event.getStartNanos() + event.getDurationNanos()).max().orElse(0);
+    }
+
+    public synchronized void saveToFile(String filename) throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
+            oos.writeObject(events);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Trace loadFromFile(String filename) throws IOException, ClassNotFoundException {
+        Trace trace = new Trace();
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
+            trace.events = (List<TraceEvent>) ois.readObject();
+        }
+        return trace;
+    }
+}
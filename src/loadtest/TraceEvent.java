@@ -0,0 +1,77 @@
+package loadtest;
+
+import java.io.Serializable;
+
+/**
+ * Запись об одном вызове {@link interfaces.INoteManager} или {@link interfaces.IUser}.
+ * Текст заметок не сохраняется, только его размер, поэтому трассу можно передавать без содержимого заметок.
+ */
+public class TraceEvent implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Operation {
+        CREATE_USER,
+        CREATE_NOTE,
+        EDIT_NOTE,
+        DELETE_NOTE,
+        GET_NOTES,
+        GET_USERS,
+        LOAD_NOTES
+    }
+
+    private final Operation operation;
+    private final String userName;
+    private final int noteIndex;
+    private final int payloadSize;
+    private final long startNanos;
+    private final long durationNanos;
+
+    /**
+     * @param operation Вызванная операция.
+     * @param userName Имя пользователя или null для {@link Operation#GET_USERS}.
+     * @param noteIndex Индекс заметки или -1, если операция не работает с конкретной заметкой.
+     * @param payloadSize Длина текста заметки для записи, количество возвращенных элементов для чтения
+     *                    или количество загруженных заметок для {@link Operation#LOAD_NOTES}.
+     * @param startNanos Время начала вызова относительно начала трассы.
+     * @param durationNanos Длительность вызова при записи.
+     */
+    public TraceEvent(Operation operation, String userName, int noteIndex, int payloadSize,
+                      long startNanos, long durationNanos) {
+        this.operation = operation;
+        this.userName = userName;
+        this.noteIndex = noteIndex;
+        this.payloadSize = payloadSize;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public int getNoteIndex() {
+        return noteIndex;
+    }
+
+    public int getPayloadSize() {
+        return payloadSize;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return operation + " user: " + userName + ", note: " + noteIndex + ", payload: " + payloadSize
+                + ", start: " + startNanos + "ns, duration: " + durationNanos + "ns";
+    }
+}
@@ -0,0 +1,92 @@
+package loadtest;
+
+import loadtest.TraceEvent.Operation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генерирует синтетическую трассу с заданным набором пользователей, размерами заметок и долей изменений.
+ * Одинаковые параметры и seed дают одинаковую трассу.
+ */
+public class WorkloadGenerator {
+    private final int users;
+    private final double userSkew;
+    private final int minNoteSize;
+    private final int maxNoteSize;
+    private final double editRatio;
+    private final double deleteRatio;
+    private final double operationsPerSecond;
+    private final long seed;
+
+    /**
+     * @param users Количество пользователей.
+     * @param userSkew Неравномерность обращений к пользователям: 1 - равномерно, больше 1 - чаще к первым.
+     * @param minNoteSize Минимальная длина текста заметки.
+     * @param maxNoteSize Максимальная длина текста заметки.
+     * @param editRatio Доля изменений среди операций над заметками.
+     * @param deleteRatio Доля удалений среди операций над заметками.
+     * @param operationsPerSecond Частота вызовов в записанном времени трассы.
+     * @param seed Начальное значение генератора случайных чисел.
+     */
+    public WorkloadGenerator(int users, double userSkew, int minNoteSize, int maxNoteSize,
+                             double editRatio, double deleteRatio, double operationsPerSecond, long seed) {
+        if (users < 1 || userSkew < 1 || minNoteSize < 0 || maxNoteSize < minNoteSize
+                || editRatio < 0 || deleteRatio < 0 || editRatio + deleteRatio > 1 || operationsPerSecond <= 0) {
+            throw new IllegalArgumentException("Invalid workload parameters");
+        }
+        this.users = users;
+        this.userSkew = userSkew;
+        this.minNoteSize = minNoteSize;
+        this.maxNoteSize = maxNoteSize;
+        this.editRatio = editRatio;
+        this.deleteRatio = deleteRatio;
+        this.operationsPerSecond = operationsPerSecond;
+        this.seed = seed;
+    }
+
+    /**
+     * Создает трассу: сначала пользователей, затем указанное количество операций над заметками.
+     * Каждая операция над заметкой сопровождается чтением списка заметок, как при выборе заметки в интерфейсе.
+     * Изменения и удаления обращаются только к существующим заметкам.
+     * @param operations Количество операций над заметками.
+     */
+    public Trace generate(int operations) {
+        Random random = new Random(seed);
+        Trace trace = new Trace();
+        long intervalNanos = (long) (1e9 / operationsPerSecond);
+        long time = 0;
+
+        List<String> userNames = new ArrayList<>();
+        int[] noteCounts = new int[users];
+        for (int i = 0; i < users; i++) {
+            String userName = "user" + i;
+            userNames.add(userName);
+            trace.addEvent(new TraceEvent(Operation.CREATE_USER, userName, -1, userName.length(), time, 0));
+            time += intervalNanos;
+        }
+
+        for (int i = 0; i < operations; i++) {
+            int user = (int) (users * Math.pow(random.nextDouble(), userSkew));
+            String userName = userNames.get(user);
+            trace.addEvent(new TraceEvent(Operation.GET_NOTES, userName, -1, noteCounts[user], time, 0));
+
+            double choice = random.nextDouble();
+            int noteSize = minNoteSize + random.nextInt(maxNoteSize - minNoteSize + 1);
+            if (noteCounts[user] > 0 && choice < editRatio) {
+                int noteIndex = random.nextInt(noteCounts[user]);
+                trace.addEvent(new TraceEvent(Operation.EDIT_NOTE, userName, noteIndex, noteSize, time, 0));
+            } else if (noteCounts[user] > 0 && choice < editRatio + deleteRatio) {
+                int noteIndex = random.nextInt(noteCounts[user]);
+                trace.addEvent(new TraceEvent(Operation.DELETE_NOTE, userName, noteIndex, 0, time, 0));
+                noteCounts[user]--;
+            } else {
+                trace.addEvent(new TraceEvent(Operation.CREATE_NOTE, userName, -1, noteSize, time, 0));
+                noteCounts[user]++;
+            }
+            time += intervalNanos;
+        }
+        return trace;
+    }
+}
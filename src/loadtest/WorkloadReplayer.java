@@ -0,0 +1,204 @@
+package loadtest;
+
+import interfaces.INote;
+import interfaces.INoteManager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Воспроизводит трассу на менеджере заметок.
+ * Вызовы распределяются по потокам по имени пользователя, поэтому вызовы одного пользователя выполняются
+ * в исходном порядке и результат не зависит от количества потоков.
+ * Текст заметок создается до начала замера вызова, поэтому ни время, ни выделенная память его не учитывают,
+ * как и длительности, записанные {@link RecordingNoteManager}.
+ */
+public class WorkloadReplayer {
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = getAllocationBean();
+
+    private final int threads;
+    private final double speed;
+
+    /**
+     * @param threads Количество потоков воспроизведения.
+     * @param speed Множитель скорости относительно записанных моментов вызовов; 0 означает без пауз.
+     */
+    public WorkloadReplayer(int threads, double speed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        if (speed < 0) {
+            throw new IllegalArgumentException("speed must not be negative: " + speed);
+        }
+        this.threads = threads;
+        this.speed = speed;
+    }
+
+    public ReplayReport replay(Trace trace, INoteManager noteManager) throws InterruptedException {
+        List<TraceEvent> events = trace.getEvents();
+        List<List<TraceEvent>> partitions = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        int maxPayloadSize = 0;
+        for (TraceEvent event : events) {
+            String userName = event.getUserName();
+            int partition = userName != null ? Math.floorMod(userName.hashCode(), threads) : 0;
+            partitions.get(partition).add(event);
+            if (hasPayload(event)) {
+                maxPayloadSize = Math.max(maxPayloadSize, event.getPayloadSize());
+            }
+        }
+        String payload = "x".repeat(maxPayloadSize);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Worker>> results = new ArrayList<>();
+        long startNanos = System.nanoTime();
+        for (List<TraceEvent> partition : partitions) {
+            Worker worker = new Worker(partition, noteManager, payload, startNanos);
+            results.add(executor.submit(worker, worker));
+        }
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        long[] serviceTimes = new long[events.size()];
+        long[] responseTimes = new long[events.size()];
+        int count = 0;
+        int errors = 0;
+        long allocatedBytes = ALLOCATION_BEAN != null ? 0 : -1;
+        for (Future<Worker> result : results) {
+            Worker worker;
+            try {
+                worker = result.get();
+            } catch (Exception e) {
+                throw new IllegalStateException("Replay worker failed", e);
+            }
+            System.arraycopy(worker.serviceTimes, 0, serviceTimes, count, worker.serviceTimes.length);
+            System.arraycopy(worker.responseTimes, 0, responseTimes, count, worker.responseTimes.length);
+            count += worker.serviceTimes.length;
+            errors += worker.errors;
+            if (allocatedBytes >= 0) {
+                allocatedBytes += worker.allocatedBytes;
+            }
+        }
+        return new ReplayReport(Arrays.copyOf(serviceTimes, count), speed > 0 ? Arrays.copyOf(responseTimes, count) : null,
+                errors, elapsedNanos, allocatedBytes);
+    }
+
+    /**
+     * Поток воспроизведения одной части трассы.
+     */
+    private class Worker implements Runnable {
+        private final List<TraceEvent> events;
+        private final INoteManager noteManager;
+        private final String payload;
+        private final long startNanos;
+        private final long[] serviceTimes;
+        private final long[] responseTimes;
+        private int errors;
+        private long allocatedBytes;
+
+        Worker(List<TraceEvent> events, INoteManager noteManager, String payload, long startNanos) {
+            this.events = events;
+            this.noteManager = noteManager;
+            this.payload = payload;
+            this.startNanos = startNanos;
+            this.serviceTimes = new long[events.size()];
+            this.responseTimes = new long[events.size()];
+        }
+
+        /**
+         * Время обслуживания измеряется от фактического начала вызова, время отклика - от запланированного,
+         * чтобы отставание от расписания не скрывало задержки очереди.
+         */
+        @Override
+        public void run() {
+            for (int i = 0; i < events.size(); i++) {
+                TraceEvent event = events.get(i);
+                String text = hasPayload(event) ? payload.substring(0, event.getPayloadSize()) : null;
+                long dueNanos = speed > 0 ? startNanos + (long) (event.getStartNanos() / speed) : 0;
+                if (speed > 0) {
+                    long waitNanos;
+                    while ((waitNanos = dueNanos - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(waitNanos);
+                    }
+                }
+                long allocatedBefore = ALLOCATION_BEAN != null ? ALLOCATION_BEAN.getCurrentThreadAllocatedBytes() : 0;
+                long start = System.nanoTime();
+                try {
+                    execute(event, text);
+                } catch (RuntimeException e) {
+                    errors++;
+                }
+                long end = System.nanoTime();
+                if (ALLOCATION_BEAN != null) {
+                    allocatedBytes += ALLOCATION_BEAN.getCurrentThreadAllocatedBytes() - allocatedBefore;
+                }
+                serviceTimes[i] = end - start;
+                responseTimes[i] = speed > 0 ? end - dueNanos : end - start;
+            }
+        }
+
+        private void execute(TraceEvent event, String text) {
+            String userName = event.getUserName();
+            switch (event.getOperation()) {
+                case CREATE_USER:
+                    noteManager.createUser(userName);
+                    break;
+                case CREATE_NOTE:
+                    noteManager.createNote(userName, text);
+                    break;
+                case EDIT_NOTE:
+                    noteManager.editNote(userName, event.getNoteIndex(), text);
+                    break;
+                case DELETE_NOTE:
+                    noteManager.deleteNote(userName, event.getNoteIndex());
+                    break;
+                case GET_NOTES:
+                    noteManager.getNotes(userName);
+                    break;
+                case GET_USERS:
+                    noteManager.getUsers();
+                    break;
+                case LOAD_NOTES:
+                    // Текст загруженных заметок не записывается: заметки пользователя заменяются тем же количеством пустых
+                    List<INote> notes = noteManager.getNotes(userName);
+                    for (int i = notes != null ? notes.size() : 0; i > 0; i--) {
+                        noteManager.deleteNote(userName, i - 1);
+                    }
+                    for (int i = 0; i < event.getPayloadSize(); i++) {
+                        noteManager.createNote(userName, "");
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static boolean hasPayload(TraceEvent event) {
+        return event.getOperation() == TraceEvent.Operation.CREATE_NOTE
+                || event.getOperation() == TraceEvent.Operation.EDIT_NOTE;
+    }
+
+    /**
+     * @return Источник объема памяти, выделенной текущим потоком, или null, если JVM его не сообщает.
+     */
+    private static com.sun.management.ThreadMXBean getAllocationBean() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+                return allocationBean;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,401 @@
+package objects;
+
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Position;
+import javax.swing.text.Segment;
+import javax.swing.undo.UndoableEdit;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Содержимое документа, разбитое на блоки не больше {@link #CHUNK_SIZE} символов (до {@link #MAX_CHUNK_SIZE}
+ * после правок). Блоки ссылаются на исходную строку заметки и копируются в собственный массив только при первом
+ * чтении или изменении, поэтому открытие большой заметки не копирует ее текст целиком.
+ */
+public class ChunkedContent implements AbstractDocument.Content {
+    static final int CHUNK_SIZE = 16 * 1024;
+    static final int MAX_CHUNK_SIZE = 2 * CHUNK_SIZE;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int[] chunkStarts = new int[0];
+    private boolean chunkStartsValid;
+    private final List<Mark> marks = new ArrayList<>(); // Отсортированы по смещению
+    private final ReferenceQueue<StickyPosition> staleMarks = new ReferenceQueue<>();
+    private int staleMarkCount;
+    private int length;
+
+    public ChunkedContent(String text) {
+        rebase(text);
+    }
+
+    /**
+     * Заменяет блоки на представление новой исходной строки с тем же текстом, сбрасывая признаки изменений.
+     * Позиции при этом сохраняются, так как смещения не меняются.
+     */
+    public void rebase(String text) {
+        chunks.clear();
+        for (int start = 0; start < text.length(); start += CHUNK_SIZE) {
+            chunks.add(new Chunk(text, start, Math.min(text.length(), start + CHUNK_SIZE)));
+        }
+        chunks.add(new Chunk("\n", 0, 1)); // Завершающий перевод строки, обязательный для AbstractDocument
+        chunkStartsValid = false;
+        length = text.length() + 1;
+    }
+
+    /**
+     * @return true, если после открытия или последнего сохранения был изменен хотя бы один блок.
+     */
+    public boolean isModified() {
+        for (Chunk chunk : chunks) {
+            if (chunk.dirty) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Собирает текст без завершающего перевода строки.
+     * Непрочитанные блоки копируются напрямую из исходной строки.
+     */
+    public String getText() {
+        StringBuilder text = new StringBuilder(length);
+        appendRange(text, 0, length - 1);
+        return text.toString();
+    }
+
+    /**
+     * Ищет символ в диапазоне {@code [from, to)}.
+     * @return Смещение найденного символа или -1.
+     */
+    public int indexOf(char c, int from, int to) {
+        to = Math.min(to, length);
+        if (from >= to) {
+            return -1;
+        }
+        for (int index = findChunk(from); index < chunks.size() && chunkStarts[index] < to; index++) {
+            int chunkStart = chunkStarts[index];
+            int found = chunks.get(index).indexOf(c, Math.max(0, from - chunkStart), Math.min(chunks.get(index).count, to - chunkStart));
+            if (found >= 0) {
+                return chunkStart + found;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public Position createPosition(int offset) throws BadLocationException {
+        checkLocation(offset, 0);
+        purgeStaleMarks();
+        int index = findMark(offset);
+        if (index < marks.size() && marks.get(index).offset == offset) {
+            StickyPosition position = marks.get(index).get();
+            if (position != null) {
+                return position; // Позиции с одинаковым смещением используют одну отметку
+            }
+        }
+        StickyPosition position = new StickyPosition(offset);
+        marks.add(index, position.mark);
+        return position;
+    }
+
+    @Override
+    public UndoableEdit insertString(int where, String str) throws BadLocationException {
+        if (where < 0 || where >= length) {
+            throw new BadLocationException("Invalid insert", where);
+        }
+        int index = findChunk(where);
+        if (index > 0 && chunkStarts[index] == where) {
+            index--; // Вставка на границе блоков дописывается в конец предыдущего блока
+        }
+        Chunk chunk = chunks.get(index);
+        int offset = where - chunkStarts[index];
+        if (chunk.count + str.length() <= MAX_CHUNK_SIZE) {
+            chunk.insert(offset, str);
+        } else {
+            // Вставленный текст и хвост блока раскладываются по новым блокам не больше CHUNK_SIZE
+            char[] tail = Arrays.copyOfRange(chunk.chars(), offset, chunk.count);
+            chunk.delete(offset, chunk.count);
+            List<Chunk> added = new ArrayList<>();
+            for (int start = 0; start < str.length(); start += CHUNK_SIZE) {
+                added.add(new Chunk(str, start, Math.min(str.length(), start + CHUNK_SIZE)).markDirty());
+            }
+            for (int start = 0; start < tail.length; start += CHUNK_SIZE) {
+                added.add(new Chunk(Arrays.copyOfRange(tail, start, Math.min(tail.length, start + CHUNK_SIZE))).markDirty());
+            }
+            chunks.addAll(index + 1, added);
+            if (chunk.count == 0) {
+                chunks.remove(index);
+            }
+        }
+        chunkStartsValid = false;
+        length += str.length();
+        updateMarksForInsert(where, str.length());
+        return null;
+    }
+
+    @Override
+    public UndoableEdit remove(int where, int nitems) throws BadLocationException {
+        checkLocation(where, nitems);
+        if (where + nitems >= length) {
+            throw new BadLocationException("Invalid remove", where + nitems);
+        }
+        int index = findChunk(where);
+        int offset = where - chunkStarts[index];
+        int remaining = nitems;
+        while (remaining > 0) {
+            Chunk chunk = chunks.get(index);
+            int count = Math.min(remaining, chunk.count - offset);
+            if (offset == 0 && count == chunk.count) {
+                chunks.remove(index);
+                chunks.get(index).dirty = true; // Удаленный блок не оставляет следов, изменение помечается на соседнем
+            } else {
+                chunk.delete(offset, offset + count);
+                index++;
+            }
+            offset = 0;
+            remaining -= count;
+        }
+        chunkStartsValid = false;
+        length -= nitems;
+        updateMarksForRemove(where, nitems);
+        return null;
+    }
+
+    @Override
+    public String getString(int where, int len) throws BadLocationException {
+        checkLocation(where, len);
+        StringBuilder text = new StringBuilder(len);
+        appendRange(text, where, len);
+        return text.toString();
+    }
+
+    /**
+     * Если диапазон целиком лежит в одном блоке, сегмент указывает прямо на массив блока без копирования.
+     * Иначе при частичном возврате сегмент ограничивается первым блоком, а без него текст копируется в новый массив.
+     */
+    @Override
+    public void getChars(int where, int len, Segment txt) throws BadLocationException {
+        checkLocation(where, len);
+        int index = findChunk(where);
+        Chunk chunk = chunks.get(index);
+        int offset = where - chunkStarts[index];
+        if (offset + len <= chunk.count || txt.isPartialReturn()) {
+            txt.array = chunk.chars();
+            txt.offset = offset;
+            txt.count = Math.min(len, chunk.count - offset);
+            return;
+        }
+        char[] array = new char[len];
+        for (int copied = 0; copied < len; index++, offset = 0) {
+            chunk = chunks.get(index);
+            int count = Math.min(len - copied, chunk.count - offset);
+            System.arraycopy(chunk.chars(), offset, array, copied, count);
+            copied += count;
+        }
+        txt.array = array;
+        txt.offset = 0;
+        txt.count = len;
+    }
+
+    private void appendRange(StringBuilder text, int where, int len) {
+        if (len == 0) {
+            return;
+        }
+        int index = findChunk(where);
+        for (int offset = where - chunkStarts[index]; len > 0; index++, offset = 0) {
+            Chunk chunk = chunks.get(index);
+            int count = Math.min(len, chunk.count - offset);
+            chunk.appendTo(text, offset, offset + count);
+            len -= count;
+        }
+    }
+
+    /**
+     * @return Индекс блока, содержащего смещение; для смещения в конце содержимого - последний блок.
+     */
+    private int findChunk(int offset) {
+        if (!chunkStartsValid) {
+            if (chunkStarts.length < chunks.size()) {
+                chunkStarts = new int[chunks.size() * 2];
+            }
+            int start = 0;
+            for (int i = 0; i < chunks.size(); i++) {
+                chunkStarts[i] = start;
+                start += chunks.get(i).count;
+            }
+            chunkStartsValid = true;
+        }
+        int index = Arrays.binarySearch(chunkStarts, 0, chunks.size(), offset);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private void checkLocation(int where, int len) throws BadLocationException {
+        if (where < 0 || len < 0 || where + len > length) {
+            throw new BadLocationException("Invalid location", where + len);
+        }
+    }
+
+    /**
+     * @return Индекс первой отметки со смещением не меньше указанного.
+     */
+    private int findMark(int offset) {
+        int low = 0;
+        int high = marks.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (marks.get(middle).offset < offset) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void updateMarksForInsert(int offset, int len) {
+        if (offset == 0) {
+            // Позиции в начале документа остаются на месте
+            offset = 1;
+        }
+        for (int i = findMark(offset); i < marks.size(); i++) {
+            marks.get(i).offset += len;
+        }
+    }
+
+    private void updateMarksForRemove(int offset, int len) {
+        for (int i = findMark(offset); i < marks.size(); i++) {
+            Mark mark = marks.get(i);
+            mark.offset = mark.offset >= offset + len ? mark.offset - len : offset;
+        }
+    }
+
+    private void purgeStaleMarks() {
+        while (staleMarks.poll() != null) {
+            staleMarkCount++;
+        }
+        if (staleMarkCount > Math.max(5, marks.size() / 10)) {
+            marks.removeIf(mark -> mark.get() == null);
+            staleMarkCount = 0;
+        }
+    }
+
+    /**
+     * Блок текста: диапазон исходной строки до первого обращения, затем собственный массив символов.
+     */
+    private static final class Chunk {
+        private String source;
+        private int sourceStart;
+        private char[] chars;
+        private int count;
+        private boolean dirty;
+
+        Chunk(String source, int start, int end) {
+            this.source = source;
+            this.sourceStart = start;
+            this.count = end - start;
+        }
+
+        Chunk(char[] chars) {
+            this.chars = chars;
+            this.count = chars.length;
+        }
+
+        Chunk markDirty() {
+            dirty = true;
+            return this;
+        }
+
+        char[] chars() {
+            if (chars == null) {
+                chars = new char[count];
+                source.getChars(sourceStart, sourceStart + count, chars, 0);
+                source = null;
+            }
+            return chars;
+        }
+
+        void insert(int offset, String str) {
+            char[] array = chars();
+            if (count + str.length() > array.length) {
+                array = Arrays.copyOf(array, Math.min(MAX_CHUNK_SIZE, Math.max(count + str.length(), 2 * count)));
+                chars = array;
+            }
+            System.arraycopy(array, offset, array, offset + str.length(), count - offset);
+            str.getChars(0, str.length(), array, offset);
+            count += str.length();
+            dirty = true;
+        }
+
+        void delete(int from, int to) {
+            char[] array = chars();
+            System.arraycopy(array, to, array, from, count - to);
+            count -= to - from;
+            dirty = true;
+        }
+
+        void appendTo(StringBuilder text, int from, int to) {
+            if (chars == null) {
+                text.append(source, sourceStart + from, sourceStart + to);
+            } else {
+                text.append(chars, from, to - from);
+            }
+        }
+
+        /**
+         * Ищет символ только внутри блока, не просматривая исходную строку за его пределами.
+         */
+        int indexOf(char c, int from, int to) {
+            if (chars == null) {
+                for (int i = sourceStart + from; i < sourceStart + to; i++) {
+                    if (source.charAt(i) == c) {
+                        return i - sourceStart;
+                    }
+                }
+                return -1;
+            }
+            for (int i = from; i < to; i++) {
+                if (chars[i] == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private final class StickyPosition implements Position {
+        private final Mark mark;
+
+        StickyPosition(int offset) {
+            this.mark = new Mark(this, offset);
+        }
+
+        @Override
+        public int getOffset() {
+            return mark.offset;
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toString(getOffset());
+        }
+    }
+
+    private final class Mark extends WeakReference<StickyPosition> {
+        private int offset;
+
+        Mark(StickyPosition position, int offset) {
+            super(position, staleMarks);
+            this.offset = offset;
+        }
+    }
+}
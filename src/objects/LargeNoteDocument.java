@@ -0,0 +1,350 @@
+package objects;
+
+import interfaces.INote;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.undo.AbstractUndoableEdit;
+import java.util.Arrays;
+
+/**
+ * Текстовый документ для больших заметок. Текст не разбирается как HTML: документ строится поверх
+ * {@link ChunkedContent}, а строки хранятся как массив смещений их начал, без позиций и элементов на каждую строку.
+ * Элементы строк создаются по запросу и отражают строку с данным номером на момент обращения.
+ * Изменения записываются в заметку не при каждом нажатии клавиши, а при вызове {@link #save()}.
+ */
+public class LargeNoteDocument extends AbstractDocument {
+    private static final long serialVersionUID = 1L;
+    public static final int LARGE_NOTE_THRESHOLD = 256 * 1024;
+
+    private final INote note;
+    private final ChunkedContent chunkedContent;
+    private final LineMap lineMap;
+    private final int longestLineLength;
+
+    public LargeNoteDocument(INote note) {
+        this(note, new ChunkedContent(note.getText()));
+    }
+
+    private LargeNoteDocument(INote note, ChunkedContent content) {
+        super(content);
+        this.note = note;
+        this.chunkedContent = content;
+        this.lineMap = new LineMap();
+        int longest = 0;
+        int lineStart = 0;
+        int lineEnd;
+        while ((lineEnd = content.indexOf('\n', lineStart, content.length() - 1)) >= 0) {
+            longest = Math.max(longest, lineEnd - lineStart);
+            lineStart = lineEnd + 1;
+            lineMap.addLine(lineStart);
+        }
+        this.longestLineLength = Math.max(longest, content.length() - 1 - lineStart);
+    }
+
+    /**
+     * @return true, если заметку следует открывать через этот документ, а не через HTML-редактор.
+     */
+    public static boolean isLarge(INote note) {
+        return note.getText().length() > LARGE_NOTE_THRESHOLD;
+    }
+
+    /**
+     * @return Длина самой длинной строки в символах на момент открытия заметки.
+     */
+    public int getLongestLineLength() {
+        return longestLineLength;
+    }
+
+    /**
+     * Записывает текст в заметку, если он изменился с момента открытия или последнего сохранения.
+     */
+    public void save() {
+        if (chunkedContent.isModified()) {
+            String text = chunkedContent.getText();
+            note.setText(text);
+            chunkedContent.rebase(text);
+        }
+    }
+
+    @Override
+    public Element getDefaultRootElement() {
+        return lineMap;
+    }
+
+    @Override
+    public Element getParagraphElement(int pos) {
+        return lineMap.getElement(lineMap.getElementIndex(pos));
+    }
+
+    @Override
+    protected void insertUpdate(DefaultDocumentEvent chng, AttributeSet attr) {
+        int offset = chng.getOffset();
+        int end = offset + chng.getLength();
+        int line = lineMap.getElementIndex(offset);
+        Element[] removed = {lineMap.getElement(line)};
+        lineMap.shiftLines(line + 1, chng.getLength());
+        int added = 0;
+        int lineEnd;
+        for (int from = offset; (lineEnd = chunkedContent.indexOf('\n', from, end)) >= 0; from = lineEnd + 1) {
+            lineMap.insertLine(line + 1 + added, lineEnd + 1);
+            added++;
+        }
+        if (added > 0) {
+            chng.addEdit(new LineChange(line, removed, lineMap.getElements(line, added + 1)));
+        }
+        super.insertUpdate(chng, attr);
+    }
+
+    @Override
+    protected void removeUpdate(DefaultDocumentEvent chng) {
+        int offset = chng.getOffset();
+        int line = lineMap.getElementIndex(offset);
+        int lastLine = lineMap.getElementIndex(offset + chng.getLength());
+        if (lastLine > line) {
+            // Строки, перевод строки перед которыми удаляется, сливаются со строкой начала удаления
+            Element[] removed = lineMap.getElements(line, lastLine - line + 1);
+            lineMap.shiftLines(lastLine + 1, -chng.getLength());
+            lineMap.removeLines(line + 1, lastLine - line);
+            chng.addEdit(new LineChange(line, removed, lineMap.getElements(line, 1)));
+        } else {
+            lineMap.shiftLines(line + 1, -chng.getLength());
+        }
+        super.removeUpdate(chng);
+    }
+
+    /**
+     * Корневой элемент: смещения начал строк. Смещения строк начиная с {@code shiftFrom} хранятся без
+     * накопленного сдвига {@code shift}, поэтому правка пересчитывает только строки между ней и предыдущей правкой.
+     */
+    private class LineMap implements Element {
+        private int[] starts = new int[64];
+        private int lineCount = 1;
+        private int shiftFrom = 1;
+        private int shift;
+
+        int getLineStart(int line) {
+            return line < shiftFrom ? starts[line] : starts[line] + shift;
+        }
+
+        void addLine(int start) {
+            insertLine(lineCount, start);
+        }
+
+        void insertLine(int line, int start) {
+            if (lineCount == starts.length) {
+                starts = Arrays.copyOf(starts, lineCount * 2);
+            }
+            System.arraycopy(starts, line, starts, line + 1, lineCount - line);
+            lineCount++;
+            if (shiftFrom > line) {
+                shiftFrom++;
+                starts[line] = start;
+            } else {
+                starts[line] = start - shift;
+            }
+        }
+
+        void removeLines(int line, int count) {
+            System.arraycopy(starts, line + count, starts, line, lineCount - line - count);
+            lineCount -= count;
+            if (shiftFrom > line) {
+                shiftFrom = Math.max(line, shiftFrom - count);
+            }
+        }
+
+        /**
+         * Сдвигает начала строк начиная с указанной на заданное количество символов.
+         */
+        void shiftLines(int line, int delta) {
+            for (; shiftFrom < line && shiftFrom < lineCount; shiftFrom++) {
+                starts[shiftFrom] += shift;
+            }
+            for (; shiftFrom > line; shiftFrom--) {
+                starts[shiftFrom - 1] -= shift;
+            }
+            shiftFrom = line;
+            shift += delta;
+        }
+
+        Element[] getElements(int line, int count) {
+            Element[] elements = new Element[count];
+            for (int i = 0; i < count; i++) {
+                elements[i] = new LineElement(line + i);
+            }
+            return elements;
+        }
+
+        @Override
+        public Document getDocument() {
+            return LargeNoteDocument.this;
+        }
+
+        @Override
+        public Element getParentElement() {
+            return null;
+        }
+
+        @Override
+        public String getName() {
+            return ParagraphElementName;
+        }
+
+        @Override
+        public AttributeSet getAttributes() {
+            return SimpleAttributeSet.EMPTY;
+        }
+
+        @Override
+        public int getStartOffset() {
+            return 0;
+        }
+
+        @Override
+        public int getEndOffset() {
+            return getLength() + 1;
+        }
+
+        @Override
+        public int getElementIndex(int offset) {
+            int low = 0;
+            int high = lineCount - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (getLineStart(middle) <= offset) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+
+        @Override
+        public int getElementCount() {
+            return lineCount;
+        }
+
+        @Override
+        public Element getElement(int index) {
+            return index >= 0 && index < lineCount ? new LineElement(index) : null;
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return false;
+        }
+    }
+
+    /**
+     * Элемент строки с данным номером.
+     */
+    private class LineElement implements Element {
+        private final int line;
+
+        LineElement(int line) {
+            this.line = line;
+        }
+
+        @Override
+        public Document getDocument() {
+            return LargeNoteDocument.this;
+        }
+
+        @Override
+        public Element getParentElement() {
+            return lineMap;
+        }
+
+        @Override
+        public String getName() {
+            return ContentElementName;
+        }
+
+        @Override
+        public AttributeSet getAttributes() {
+            return SimpleAttributeSet.EMPTY;
+        }
+
+        @Override
+        public int getStartOffset() {
+            return lineMap.getLineStart(Math.min(line, lineMap.lineCount - 1));
+        }
+
+        @Override
+        public int getEndOffset() {
+            return line + 1 < lineMap.lineCount ? lineMap.getLineStart(line + 1) : getLength() + 1;
+        }
+
+        @Override
+        public int getElementIndex(int offset) {
+            return -1;
+        }
+
+        @Override
+        public int getElementCount() {
+            return 0;
+        }
+
+        @Override
+        public Element getElement(int index) {
+            return null;
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return true;
+        }
+    }
+
+    /**
+     * Описание замены строк для слушателей документа. Отмена не поддерживается: содержимое не хранит правки.
+     */
+    private class LineChange extends AbstractUndoableEdit implements DocumentEvent.ElementChange {
+        private static final long serialVersionUID = 1L;
+
+        private final int index;
+        private final Element[] removed;
+        private final Element[] added;
+
+        LineChange(int index, Element[] removed, Element[] added) {
+            this.index = index;
+            this.removed = removed;
+            this.added = added;
+        }
+
+        @Override
+        public Element getElement() {
+            return lineMap;
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public Element[] getChildrenRemoved() {
+            return removed;
+        }
+
+        @Override
+        public Element[] getChildrenAdded() {
+            return added;
+        }
+
+        @Override
+        public boolean canUndo() {
+            return false;
+        }
+
+        @Override
+        public boolean canRedo() {
+            return false;
+        }
+    }
+}
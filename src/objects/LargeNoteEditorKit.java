@@ -0,0 +1,149 @@
+package objects;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultEditorKit;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.JTextComponent;
+import javax.swing.text.PlainView;
+import javax.swing.text.Segment;
+import javax.swing.text.ViewFactory;
+import java.awt.*;
+
+/**
+ * Набор редактирования для {@link LargeNoteDocument}. Представление не измеряет все строки документа:
+ * ширина оценивается по длине самой длинной строки и моноширинному шрифту, а отрисовываются только видимые строки.
+ */
+public class LargeNoteEditorKit extends DefaultEditorKit {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public ViewFactory getViewFactory() {
+        return LargeNoteView::new;
+    }
+
+    /**
+     * Представление строк, которое при смене шрифта и при правках не пересчитывает ширину всего документа.
+     */
+    private static class LargeNoteView extends PlainView {
+        private int longestLineLength;
+        private float tabWidth;
+
+        LargeNoteView(Element elem) {
+            super(elem);
+            Document doc = elem.getDocument();
+            if (doc instanceof LargeNoteDocument) {
+                longestLineLength = ((LargeNoteDocument) doc).getLongestLineLength();
+            }
+        }
+
+        @Override
+        protected void updateMetrics() {
+            Font font = getContainer().getFont();
+            if (metrics == null || !font.equals(metrics.getFont())) {
+                metrics = getContainer().getFontMetrics(font);
+                tabWidth = getTabSize() * metrics.charWidth('m');
+            }
+        }
+
+        @Override
+        public float getPreferredSpan(int axis) {
+            if (axis == X_AXIS) {
+                updateMetrics();
+                return longestLineLength * metrics.charWidth('m');
+            }
+            return super.getPreferredSpan(axis);
+        }
+
+        @Override
+        protected float drawUnselectedText(Graphics2D g, float x, float y, int p0, int p1) throws BadLocationException {
+            int[] range = {p0, p1};
+            float visibleX = clipToVisible(g, x, range);
+            return range[0] < range[1] ? super.drawUnselectedText(g, visibleX, y, range[0], range[1]) : visibleX;
+        }
+
+        @Override
+        protected float drawSelectedText(Graphics2D g, float x, float y, int p0, int p1) throws BadLocationException {
+            int[] range = {p0, p1};
+            float visibleX = clipToVisible(g, x, range);
+            return range[0] < range[1] ? super.drawSelectedText(g, visibleX, y, range[0], range[1]) : visibleX;
+        }
+
+        /**
+         * Сужает диапазон текста до символов, попадающих в область отсечения по горизонтали, чтобы длинная строка,
+         * например заметка с картинкой в base64, не отрисовывалась целиком при каждой перерисовке.
+         * @param range Начало и конец диапазона; изменяются на границы видимой части.
+         * @return Координата начала видимой части.
+         */
+        private float clipToVisible(Graphics2D g, float x, int[] range) throws BadLocationException {
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                return x;
+            }
+            Segment text = new Segment();
+            text.setPartialReturn(true);
+            int offset = range[0];
+            float startX = x;
+            while (offset < range[1]) {
+                getDocument().getText(offset, range[1] - offset, text);
+                for (char c = text.first(); c != Segment.DONE; c = text.next(), offset++) {
+                    float nextX = c == '\t' ? nextTabStop(x, offset) : x + metrics.charWidth(c);
+                    if (nextX <= clip.x) {
+                        range[0] = offset + 1;
+                        startX = nextX;
+                    } else if (x >= clip.x + clip.width) {
+                        range[1] = offset;
+                        return startX;
+                    }
+                    x = nextX;
+                }
+            }
+            return startX;
+        }
+
+        @Override
+        public float nextTabStop(float x, int tabOffset) {
+            if (tabWidth == 0) {
+                return x;
+            }
+            Component host = getContainer();
+            int tabBase = host instanceof JTextComponent ? ((JTextComponent) host).getInsets().left : 0;
+            int tabs = (int) ((x - tabBase) / tabWidth);
+            return tabBase + (tabs + 1) * tabWidth;
+        }
+
+        /**
+         * Перерисовывает измененную строку или, если строки добавлены или удалены, видимую область.
+         * Длины проверяются только у строк, затронутых вставкой; после удалений ширина не уменьшается.
+         */
+        @Override
+        protected void updateDamage(DocumentEvent changes, Shape a, ViewFactory f) {
+            updateMetrics();
+            Component host = getContainer();
+            Element map = getElement();
+            int line = map.getElementIndex(changes.getOffset());
+            boolean wider = false;
+            if (changes.getType() == DocumentEvent.EventType.INSERT) {
+                int lastLine = map.getElementIndex(changes.getOffset() + changes.getLength());
+                for (int i = line; i <= lastLine; i++) {
+                    Element lineElement = map.getElement(i);
+                    int lineLength = lineElement.getEndOffset() - lineElement.getStartOffset() - 1;
+                    if (lineLength > longestLineLength) {
+                        longestLineLength = lineLength;
+                        wider = true;
+                    }
+                }
+            }
+            if (changes.getChange(map) != null) {
+                preferenceChanged(null, true, true);
+                host.repaint();
+            } else {
+                damageLineRange(line, line, a, host);
+                if (wider) {
+                    preferenceChanged(null, true, false);
+                }
+            }
+        }
+    }
+}
@@ -5,15 +5,15 @@ import interfaces.INoteManager;
 import interfaces.IUser;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class NoteManager implements INoteManager {
     private Map<String, IUser> users;
 
     public NoteManager() {
-        this.users = new HashMap<>();
+        this.users = new ConcurrentHashMap<>();
     }
 
     @Override